@@ -4,7 +4,9 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.time.format.ResolverStyle;
-import java.util.Set;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class FlightSearch {
 
@@ -18,11 +20,34 @@ public class FlightSearch {
     private int     adultPassengerCount;
     private int     childPassengerCount;
     private int     infantPassengerCount;
+    private LocalDate departureDay;
+    private LocalDate returnDay;
+    private int       routeKey;
+
+    /* -------------------- accepted-search hook ---------------------- */
+    private final SearchListener listener;
+    private int listenerFailureCount;
 
     /* ---------------------- white-lists & const --------------------- */
-    private static final Set<String> AIRPORTS = Set.of("syd","mel","lax","cdg","del","pvg","doh");
-    private static final Set<String> CLASSES  = Set.of("economy","premium economy","business","first");
-    private static final DateTimeFormatter DF = DateTimeFormatter.ofPattern("dd/MM/uuuu").withResolverStyle(ResolverStyle.STRICT);
+    // Ordered so the index can be used as a stable code in binary records (see SearchRecord).
+    static final List<String> AIRPORT_CODES = List.of("syd","mel","lax","cdg","del","pvg","doh");
+    static final List<String> SEATING_CLASSES = List.of("economy","premium economy","business","first");
+    // Code -> index, so the white-list checks also yield the route key
+    private static final Map<String, Integer> AIRPORTS = indexOf(AIRPORT_CODES);
+    private static final Map<String, Integer> CLASSES  = indexOf(SEATING_CLASSES);
+    static final DateTimeFormatter DF = DateTimeFormatter.ofPattern("dd/MM/uuuu").withResolverStyle(ResolverStyle.STRICT);
+
+    /* -------------------------- constructors ------------------------ */
+    public FlightSearch() {
+        this(null);
+    }
+
+    /**
+     * @param listener notified after every accepted search; may be null
+     */
+    public FlightSearch(SearchListener listener) {
+        this.listener = listener;
+    }
 
     /* ---------------------- main business method -------------------- */
     public boolean runFlightSearch(String departureDate,
@@ -67,15 +92,17 @@ public class FlightSearch {
         if (retDate.isBefore(depDate)) return false;
 
         /* ---- C9 ---- */
-        if (!CLASSES.contains(seatingClass)) return false;
+        Integer classIndex = CLASSES.get(seatingClass);
+        if (classIndex == null) return false;
 
         /* ---- C10 ---- */
         if (emergencyRowSeating && !"economy".equals(seatingClass)) return false;
 
         /* ---- C11 ---- */
-        if (!AIRPORTS.contains(departureAirportCode) ||
-            !AIRPORTS.contains(destinationAirportCode) ||
-            departureAirportCode.equals(destinationAirportCode)) return false;
+        Integer depIndex = AIRPORTS.get(departureAirportCode);
+        Integer desIndex = AIRPORTS.get(destinationAirportCode);
+        if (depIndex == null || desIndex == null ||
+            depIndex.intValue() == desIndex.intValue()) return false;
 
         /* ---------- all good – persist attributes ---------- */
         this.departureDate        = departureDate;
@@ -87,7 +114,17 @@ public class FlightSearch {
         this.adultPassengerCount  = adultPassengerCount;
         this.childPassengerCount  = childPassengerCount;
         this.infantPassengerCount = infantPassengerCount;
-
+        this.departureDay         = depDate;
+        this.returnDay            = retDate;
+        this.routeKey             = SearchRecord.routeKey(depIndex, desIndex, classIndex);
+
+        if (listener != null) {
+            try {
+                listener.onAccepted(this);
+            } catch (RuntimeException ex) {
+                listenerFailureCount++; // a listener must never change the validation result
+            }
+        }
         return true;
     }
 
@@ -101,4 +138,18 @@ public class FlightSearch {
     public int getAdultPassengerCount() { return adultPassengerCount; }
     public int getChildPassengerCount() { return childPassengerCount; }
     public int getInfantPassengerCount() { return infantPassengerCount; }
+    public int getListenerFailureCount() { return listenerFailureCount; }
+
+    /* ------------- parsed dates (package-private, for encoders) ------------- */
+    LocalDate departureDay() { return departureDay; }
+    LocalDate returnDay() { return returnDay; }
+
+    /** @return {@link SearchRecord#routeKey} of the last accepted search */
+    int routeKey() { return routeKey; }
+
+    private static Map<String, Integer> indexOf(List<String> codes) {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < codes.size(); i++) index.put(codes.get(i), i);
+        return Map.copyOf(index);
+    }
 }
@@ -0,0 +1,223 @@
+package flight;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Streaming route-popularity analytics over accepted searches, keyed on
+ * {@link SearchRecord#routeKey} (departure, destination, seating class).
+ *
+ * Memory is fixed at construction: a count-min sketch of
+ * {@code depth x width} counters for frequency estimates, plus a heavy-hitters
+ * table of {@code capacity} routes ranked by their sketch estimate for top-K
+ * queries. Both are striped so that concurrent updaters rarely touch the same
+ * stripe; a thread always updates the stripe picked by its id. An update is
+ * {@code depth} atomic increments; an update touches the heavy-hitters table
+ * only when its stripe-local estimate is 1 mod 8 and beats the smallest one
+ * there, so at most one update in eight takes the stripe lock. Summing the stripes' sketches gives a valid sketch of the whole
+ * stream, and a route that is frequent overall is frequent in at least one
+ * stripe, so merging the stripe tables at snapshot time finds it.
+ *
+ * Estimates never undercount; they overcount by at most
+ * {@code e * total / width} with probability {@code 1 - e^-depth}.
+ */
+public class RouteAnalytics implements SearchListener {
+
+    /* -------------------------- constants --------------------------- */
+    public static final int DEFAULT_WIDTH = 1024;
+    public static final int DEFAULT_DEPTH = 4;
+    public static final int DEFAULT_CAPACITY = 64;
+
+    // Per-row seeds giving each sketch row an independent hash.
+    private static final int[] SEEDS = {
+        0x9E3779B1, 0x85EBCA77, 0xC2B2AE3D, 0x27D4EB2F, 0x165667B1, 0xD3A2646C, 0xFD7046C5, 0xB55A4F09
+    };
+
+    /* -------------------------- attributes -------------------------- */
+    private final int width;
+    private final int depth;
+    private final int mask;
+    private final Stripe[] stripes;
+
+    /* -------------------------- constructors ------------------------ */
+    public RouteAnalytics() {
+        this(DEFAULT_WIDTH, DEFAULT_DEPTH, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param width    counters per sketch row, rounded up to a power of two
+     * @param depth    sketch rows (1-8)
+     * @param capacity heavy-hitter routes kept per stripe; top-K is meaningful for K up to this
+     */
+    public RouteAnalytics(int width, int depth, int capacity) {
+        if (width < 1) throw new IllegalArgumentException("width must be >= 1");
+        if (depth < 1 || depth > SEEDS.length) throw new IllegalArgumentException("depth must be 1-" + SEEDS.length);
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be >= 1");
+        this.width = ceilPowerOfTwo(width);
+        this.depth = depth;
+        this.mask = this.width - 1;
+        int n = ceilPowerOfTwo(Runtime.getRuntime().availableProcessors() * 2);
+        this.stripes = new Stripe[n];
+        for (int i = 0; i < n; i++) stripes[i] = new Stripe(this.width * depth, capacity);
+    }
+
+    private static int ceilPowerOfTwo(int n) {
+        int p = Integer.highestOneBit(n);
+        return p == n ? n : p << 1;
+    }
+
+    /* ---------------------------- update ---------------------------- */
+    @Override
+    public void onAccepted(FlightSearch search) {
+        record(search.routeKey());
+    }
+
+    /** Count one occurrence of {@code routeKey}. */
+    public void record(int routeKey) {
+        Stripe s = stripes[(int) Thread.currentThread().getId() & (stripes.length - 1)];
+        long local = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            local = Math.min(local, s.counters.incrementAndGet(row * width + index(routeKey, row)));
+        }
+        // Offer a route to the table only when its stripe-local estimate is 1 mod 8, full or not,
+        // so at most one update in 8 takes the stripe lock. Without collisions that is the
+        // route's 1st, 9th, 17th... count; in a crowded stripe the estimate starts inflated,
+        // so entry is probabilistic (about one update in 8) and a rare route may never get in.
+        // Table counts just order evictions: snapshots re-rank with the merged sketch.
+        if ((local & 7) == 1 && local > s.floor) s.offer(routeKey, local);
+    }
+
+    // murmur3 finalizer over the seeded key, so every output bit depends on every key bit
+    private int index(int key, int row) {
+        int h = key ^ SEEDS[row];
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h & mask;
+    }
+
+    /* ---------------------------- queries --------------------------- */
+
+    /** @return estimated number of searches recorded for {@code routeKey} */
+    public long estimate(int routeKey) {
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int i = row * width + index(routeKey, row);
+            long sum = 0;
+            for (Stripe s : stripes) sum += s.counters.get(i);
+            min = Math.min(min, sum);
+        }
+        return min;
+    }
+
+    /** @return total number of searches recorded (every update adds one to row 0) */
+    public long total() {
+        long sum = 0;
+        for (Stripe s : stripes) {
+            for (int i = 0; i < width; i++) sum += s.counters.get(i);
+        }
+        return sum;
+    }
+
+    /** @return approximate heap used by counters and summaries; fixed at construction */
+    public long footprintBytes() {
+        return (long) stripes.length * ((long) width * depth * Long.BYTES
+                                        + (long) stripes[0].keys.length * (Integer.BYTES + Long.BYTES));
+    }
+
+    /** @return how many updates took a stripe lock (for tests) */
+    long lockedUpdates() {
+        long sum = 0;
+        for (Stripe s : stripes) {
+            synchronized (s) {
+                sum += s.offers;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Take a point-in-time view of the {@code k} most searched routes.
+     * Concurrent updates may or may not be reflected.
+     */
+    public Snapshot snapshot(int k) {
+        if (k < 0) throw new IllegalArgumentException("k must be >= 0");
+        Set<Integer> candidates = new HashSet<>();
+        for (Stripe s : stripes) s.collect(candidates);
+        List<RouteCount> top = new ArrayList<>(candidates.size());
+        for (int key : candidates) top.add(new RouteCount(key, estimate(key)));
+        top.sort((a, b) -> Long.compare(b.estimate(), a.estimate()));
+        return new Snapshot(total(), List.copyOf(top.subList(0, Math.min(k, top.size()))));
+    }
+
+    /** Estimated search count for one route. */
+    public record RouteCount(int routeKey, long estimate) {
+        @Override
+        public String toString() {
+            return SearchRecord.describeRouteKey(routeKey) + "=" + estimate;
+        }
+    }
+
+    /** Result of {@link #snapshot}: total searches and the top routes, most searched first. */
+    public record Snapshot(long total, List<RouteCount> top) { }
+
+    /* ---------------------------- stripe ---------------------------- */
+
+    /**
+     * One thread-group's share of the state: a sketch and a heavy-hitters
+     * table of the routes with the largest stripe-local estimates. The table
+     * is guarded by the stripe's monitor, which is normally uncontended, and
+     * {@code floor} lets most updates skip it without locking.
+     */
+    private static final class Stripe {
+        final AtomicLongArray counters;
+        private final int[] keys;
+        private final long[] counts;
+        private int used;
+        long offers; // times the table was locked, for tests
+        volatile long floor;
+
+        Stripe(int counterCount, int capacity) {
+            this.counters = new AtomicLongArray(counterCount);
+            this.keys = new int[capacity];
+            this.counts = new long[capacity];
+        }
+
+        synchronized void offer(int key, long estimate) {
+            offers++;
+            int min = 0;
+            for (int i = 0; i < used; i++) {
+                if (keys[i] == key) {
+                    counts[i] = estimate;
+                    updateFloor();
+                    return;
+                }
+                if (counts[i] < counts[min]) min = i;
+            }
+            if (used < keys.length) {
+                keys[used] = key;
+                counts[used++] = estimate;
+            } else if (estimate > counts[min]) {
+                keys[min] = key;
+                counts[min] = estimate;
+            }
+            updateFloor();
+        }
+
+        private void updateFloor() {
+            if (used < keys.length) return;
+            long min = counts[0];
+            for (int i = 1; i < used; i++) min = Math.min(min, counts[i]);
+            floor = min;
+        }
+
+        synchronized void collect(Set<Integer> out) {
+            for (int i = 0; i < used; i++) out.add(keys[i]);
+        }
+    }
+}
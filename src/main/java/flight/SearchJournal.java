@@ -0,0 +1,295 @@
+package flight;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of accepted searches, stored as {@link SearchRecord}s in
+ * fixed-size memory-mapped segment files ({@code segment-0000000000.wsj}, ...).
+ *
+ * Appending is lock-free: each writer claims a slot with one
+ * {@code getAndIncrement} on the shared position and then writes its record
+ * directly into the mapped segment. The writer that claims the first slot of a
+ * segment hands roll-over to a single background thread, which forces and
+ * releases the segments before it and pre-maps the one after, so writers
+ * neither block on mapping nor on I/O in the common case and only the current
+ * and next segments stay mapped.
+ *
+ * Register an instance as the {@link SearchListener} of {@link FlightSearch}
+ * to record every accepted search, and read it back with {@link #replay}.
+ */
+public class SearchJournal implements SearchListener, AutoCloseable {
+
+    /* -------------------------- constants --------------------------- */
+    public static final int DEFAULT_RECORDS_PER_SEGMENT = 1 << 16; // 2 MiB segments
+    private static final String SEGMENT_SUFFIX = ".wsj";
+
+    /* -------------------------- attributes -------------------------- */
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final long startSegment;
+    private final AtomicLong position = new AtomicLong();
+    private final ConcurrentHashMap<Long, MappedByteBuffer> segments = new ConcurrentHashMap<>();
+    private final AtomicLong entered = new AtomicLong();     // highest segment a writer has entered
+    private volatile Mapped current = new Mapped(-1, null);  // hot-path cache of the entered segment
+    volatile long forcedThrough = -1;                       // highest segment forced and released in the background
+    final LongAdder writerMappings = new LongAdder();       // segments a writer had to map itself
+    private final LongAdder dropped = new LongAdder();
+    private final ExecutorService flusher = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "search-journal-flusher");
+        t.setDaemon(true);
+        return t;
+    });
+    private volatile boolean closed;
+
+    /* -------------------------- constructors ------------------------ */
+    public SearchJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_RECORDS_PER_SEGMENT);
+    }
+
+    /**
+     * Open (or create) a journal in {@code directory}. Appends continue after the
+     * last committed record of any existing segments (never inside a hole left
+     * by a crashed writer), which must have been written with the same
+     * {@code recordsPerSegment}.
+     *
+     * @throws IllegalArgumentException if {@code recordsPerSegment} is below 1 or a
+     *         segment would reach 2 GiB (the limit of one mapping)
+     * @throws IOException if an existing segment was written with a different
+     *         {@code recordsPerSegment}
+     */
+    public SearchJournal(Path directory, int recordsPerSegment) throws IOException {
+        if (recordsPerSegment < 1) throw new IllegalArgumentException("recordsPerSegment must be >= 1");
+        if (recordsPerSegment > Integer.MAX_VALUE / SearchRecord.SIZE) {
+            throw new IllegalArgumentException("recordsPerSegment must be <= " + Integer.MAX_VALUE / SearchRecord.SIZE);
+        }
+        this.directory = Files.createDirectories(directory);
+        this.recordsPerSegment = recordsPerSegment;
+        long segmentBytes = (long) recordsPerSegment * SearchRecord.SIZE;
+        for (Path file : segmentFiles(directory)) {
+            if (Files.size(file) != segmentBytes) {
+                throw new IOException(file + " is " + Files.size(file) + " bytes, expected " + segmentBytes
+                                      + " for " + recordsPerSegment + " records per segment");
+            }
+        }
+        this.position.set(scan(directory, r -> { }));
+        long start = position.get() / recordsPerSegment;
+        this.startSegment = start;
+        entered.set(start);
+        roll();
+    }
+
+    /* ---------------------------- append ---------------------------- */
+    /** Record an accepted search; once the journal is closed it is dropped and counted instead. */
+    @Override
+    public void onAccepted(FlightSearch search) {
+        if (closed) {
+            dropped.increment();
+            return;
+        }
+        append(search);
+    }
+
+    /** @return accepted searches dropped by {@link #onAccepted} because the journal was closed */
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Record an accepted search.
+     * @return the sequence number of the record within the journal
+     * @throws IllegalStateException if the journal has been closed
+     */
+    public long append(FlightSearch search) {
+        if (closed) throw new IllegalStateException("journal is closed");
+        long seq = position.getAndIncrement();
+        long segmentIndex = seq / recordsPerSegment;
+        int slot = (int) (seq % recordsPerSegment);
+        if (slot == 0 && segmentIndex > startSegment) {
+            entered.accumulateAndGet(segmentIndex, Math::max);
+            roll();
+        }
+        int offset = slot * SearchRecord.SIZE;
+        MappedByteBuffer buf = segment(segmentIndex);
+        SearchRecord.encode(buf, offset, search, System.currentTimeMillis());
+        // Finished after this segment was retired: its background force may have missed us
+        if (segmentIndex < entered.get()) buf.force(offset, SearchRecord.SIZE);
+        return seq;
+    }
+
+    /** @return number of records claimed so far (including ones still being written) */
+    public long size() {
+        return position.get();
+    }
+
+    private MappedByteBuffer segment(long index) {
+        Mapped m = current;
+        if (m.index == index) return m.buffer;
+        MappedByteBuffer buf = segments.get(index);
+        if (buf != null) return buf;
+        // A retired segment is mapped privately so that it is not held again
+        if (index < entered.get()) return mapOnWriter(index);
+        return segments.computeIfAbsent(index, this::mapOnWriter);
+    }
+
+    /**
+     * Schedule roll-over to the entered segment: force and release every
+     * segment before it, then map it and the next one. Tasks run in order on
+     * one thread and always act on the latest entered segment, so duplicate or
+     * out-of-order requests are harmless.
+     */
+    private void roll() {
+        try {
+            flusher.execute(() -> {
+                long index = entered.get();
+                for (Long old : segments.keySet()) {
+                    if (old >= index) continue;
+                    MappedByteBuffer done = segments.remove(old);
+                    if (done != null) done.force();
+                    if (old > forcedThrough) forcedThrough = old;
+                }
+                MappedByteBuffer buf = segments.computeIfAbsent(index, this::map);
+                if (current.index < index) current = new Mapped(index, buf);
+                segments.computeIfAbsent(index + 1, this::map);
+            });
+        } catch (RejectedExecutionException ex) {
+            // closing - close() forces everything that is still mapped
+        }
+    }
+
+    /** Wait until all roll-over work scheduled so far has run (for tests). */
+    void awaitRollOver() throws Exception {
+        flusher.submit(() -> { }).get();
+    }
+
+    /** @return indices of the segments currently held mapped (for tests) */
+    Set<Long> mappedSegments() {
+        return new TreeSet<>(segments.keySet());
+    }
+
+    private MappedByteBuffer mapOnWriter(long index) {
+        writerMappings.increment();
+        return map(index);
+    }
+
+    private MappedByteBuffer map(long index) {
+        Path file = directory.resolve(segmentName(index));
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                                               StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_WRITE, 0,
+                                          (long) recordsPerSegment * SearchRecord.SIZE);
+            buf.order(ByteOrder.LITTLE_ENDIAN);
+            return buf;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("cannot map journal segment " + file, ex);
+        }
+    }
+
+    private static String segmentName(long index) {
+        return String.format("segment-%010d%s", index, SEGMENT_SUFFIX);
+    }
+
+    private static final class Mapped {
+        final long index;
+        final MappedByteBuffer buffer;
+
+        Mapped(long index, MappedByteBuffer buffer) {
+            this.index = index;
+            this.buffer = buffer;
+        }
+    }
+
+    /* ----------------------------- close ---------------------------- */
+
+    /**
+     * Stop accepting appends, wait for background work and force the segments
+     * still mapped to disk. Appends that race with close may or may not be persisted.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        segments.values().forEach(MappedByteBuffer::force);
+    }
+
+    /* ---------------------------- replay ---------------------------- */
+
+    /**
+     * Sequentially read every committed record of the journal in
+     * {@code directory}, in append order. The visitor receives the same
+     * reused {@link SearchRecord} view each time and must not keep it.
+     * Uncommitted slots - holes left by a writer that crashed between claiming
+     * and committing, or records still being written - are skipped.
+     * @return number of records visited
+     */
+    public static long replay(Path directory, Consumer<SearchRecord> visitor) throws IOException {
+        long[] count = {0};
+        scan(directory, r -> {
+            visitor.accept(r);
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    /**
+     * Visit every committed record in order.
+     * @return the high-water mark: sequence number after the last committed record
+     */
+    private static long scan(Path directory, Consumer<SearchRecord> visitor) throws IOException {
+        SearchRecord view = new SearchRecord();
+        long highWater = 0;
+        for (Path file : segmentFiles(directory)) {
+            String name = file.getFileName().toString();
+            long index = Long.parseLong(name.substring("segment-".length(), name.length() - SEGMENT_SUFFIX.length()));
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = ch.size() - ch.size() % SearchRecord.SIZE;
+                long slots = size / SearchRecord.SIZE;
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                buf.order(ByteOrder.LITTLE_ENDIAN);
+                for (int slot = 0; slot < slots; slot++) {
+                    int offset = slot * SearchRecord.SIZE;
+                    if (!SearchRecord.isCommitted(buf, offset)) continue;
+                    visitor.accept(view.wrap(buf, offset));
+                    highWater = index * slots + slot + 1;
+                }
+            }
+        }
+        return highWater;
+    }
+
+    /** @return the segment files in {@code directory}, in index order */
+    private static List<Path> segmentFiles(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (Files.isDirectory(directory)) {
+            try (Stream<Path> s = Files.list(directory)) {
+                s.filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().forEach(files::add);
+            }
+        }
+        return files;
+    }
+}
@@ -0,0 +1,37 @@
+package flight;
+
+/**
+ * Callback invoked by {@link FlightSearch#runFlightSearch} once a search has
+ * passed all 11 conditions and its attributes have been initialized.
+ * Implementations run on the caller's thread, so they must be cheap and
+ * thread-safe when one listener is shared by several FlightSearch instances.
+ * A RuntimeException thrown by a listener does not propagate: the search is
+ * still accepted and the failure is counted by
+ * {@link FlightSearch#getListenerFailureCount}.
+ */
+@FunctionalInterface
+public interface SearchListener {
+
+    void onAccepted(FlightSearch search);
+
+    /**
+     * @return a listener that notifies this one and then {@code next}. {@code next}
+     *         is notified even if this listener throws; that exception is then
+     *         rethrown, with any thrown by {@code next} added as suppressed.
+     */
+    default SearchListener andThen(SearchListener next) {
+        return search -> {
+            try {
+                onAccepted(search);
+            } catch (RuntimeException ex) {
+                try {
+                    next.onAccepted(search);
+                } catch (RuntimeException nextEx) {
+                    ex.addSuppressed(nextEx);
+                }
+                throw ex;
+            }
+            next.onAccepted(search);
+        };
+    }
+}
@@ -0,0 +1,148 @@
+package flight;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDate;
+
+/**
+ * Fixed-width (32 byte, little-endian) binary form of an accepted search.
+ *
+ * <pre>
+ *  offset  size  field
+ *   0      4     commit marker (MAGIC once the record is complete, 0 otherwise)
+ *   4      4     departure date (epoch day)
+ *   8      4     return date (epoch day)
+ *  12      1     departure airport  (index into FlightSearch.AIRPORT_CODES)
+ *  13      1     destination airport (index into FlightSearch.AIRPORT_CODES)
+ *  14      1     seating class      (index into FlightSearch.SEATING_CLASSES)
+ *  15      1     flags (bit 0 = emergency row seating)
+ *  16      1     adult passengers
+ *  17      1     child passengers
+ *  18      1     infant passengers
+ *  19      5     reserved
+ *  24      8     accepted-at timestamp (epoch millis)
+ * </pre>
+ *
+ * Writers fill the body first and publish the commit marker last with release
+ * semantics, so a reader that sees MAGIC also sees the whole record.
+ * An instance of this class is a reusable read-only view (flyweight) over one
+ * record; {@link #wrap} repositions it without allocating.
+ */
+public final class SearchRecord {
+
+    /* ---------------------- layout constants ------------------------ */
+    public static final int SIZE = 32;
+    static final int MAGIC = 0x31435357; // "WSC1" little-endian
+
+    private static final int COMMIT = 0;
+    private static final int DEP_DAY = 4;
+    private static final int RET_DAY = 8;
+    private static final int DEP_AIRPORT = 12;
+    private static final int DES_AIRPORT = 13;
+    private static final int CLASS = 14;
+    private static final int FLAGS = 15;
+    private static final int ADULTS = 16;
+    private static final int CHILDREN = 17;
+    private static final int INFANTS = 18;
+    private static final int TIMESTAMP = 24;
+
+    private static final int FLAG_EMERGENCY = 1;
+
+    private static final VarHandle INT_VIEW =
+        MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    /* ----------------------------- view ----------------------------- */
+    private ByteBuffer buf;
+    private int base;
+
+    /** Point this view at the record starting at {@code offset} in {@code buffer}. */
+    public SearchRecord wrap(ByteBuffer buffer, int offset) {
+        this.buf = buffer;
+        this.base = offset;
+        return this;
+    }
+
+    /** @return true when the record at {@code offset} has been fully written */
+    static boolean isCommitted(ByteBuffer buffer, int offset) {
+        return (int) INT_VIEW.getAcquire(buffer, offset + COMMIT) == MAGIC;
+    }
+
+    /* --------------------------- encoding --------------------------- */
+
+    /**
+     * Write an accepted search into the little-endian {@code buffer} at {@code offset}.
+     * Uses absolute puts only, so distinct offsets of one buffer may be written
+     * concurrently from different threads.
+     */
+    static void encode(ByteBuffer buffer, int offset, FlightSearch fs, long timestampMillis) {
+        buffer.putInt(offset + DEP_DAY, (int) fs.departureDay().toEpochDay());
+        buffer.putInt(offset + RET_DAY, (int) fs.returnDay().toEpochDay());
+        int routeKey = fs.routeKey();
+        buffer.put(offset + DEP_AIRPORT, (byte) (routeKey >>> 16));
+        buffer.put(offset + DES_AIRPORT, (byte) (routeKey >>> 8));
+        buffer.put(offset + CLASS, (byte) routeKey);
+        buffer.put(offset + FLAGS, (byte) (fs.isEmergencyRowSeating() ? FLAG_EMERGENCY : 0));
+        buffer.put(offset + ADULTS, (byte) fs.getAdultPassengerCount());
+        buffer.put(offset + CHILDREN, (byte) fs.getChildPassengerCount());
+        buffer.put(offset + INFANTS, (byte) fs.getInfantPassengerCount());
+        buffer.putLong(offset + TIMESTAMP, timestampMillis);
+        INT_VIEW.setRelease(buffer, offset + COMMIT, MAGIC);
+    }
+
+    /* --------------------------- route key -------------------------- */
+
+    /**
+     * Pack departure airport, destination airport and seating class indices
+     * into one int ({@code dep << 16 | des << 8 | class}), e.g. for keyed analytics.
+     */
+    public static int routeKey(int departureAirport, int destinationAirport, int seatingClass) {
+        return departureAirport << 16 | destinationAirport << 8 | seatingClass;
+    }
+
+    /**
+     * Human-readable form of a route key, e.g. {@code "syd-mel/economy"}.
+     * Keys not produced by {@link #routeKey} are shown in hex, e.g. {@code "0x186a0"}.
+     */
+    public static String describeRouteKey(int key) {
+        int dep = key >>> 16, des = key >>> 8 & 0xff, cls = key & 0xff;
+        if (dep >= FlightSearch.AIRPORT_CODES.size() || des >= FlightSearch.AIRPORT_CODES.size()
+            || cls >= FlightSearch.SEATING_CLASSES.size()) {
+            return "0x" + Integer.toHexString(key);
+        }
+        return FlightSearch.AIRPORT_CODES.get(dep) + "-" + FlightSearch.AIRPORT_CODES.get(des) + "/"
+             + FlightSearch.SEATING_CLASSES.get(cls);
+    }
+
+    /* ---------------------------- getters --------------------------- */
+    public LocalDate getDepartureDay() { return LocalDate.ofEpochDay(buf.getInt(base + DEP_DAY)); }
+    public LocalDate getReturnDay() { return LocalDate.ofEpochDay(buf.getInt(base + RET_DAY)); }
+    public String getDepartureDate() { return getDepartureDay().format(FlightSearch.DF); }
+    public String getReturnDate() { return getReturnDay().format(FlightSearch.DF); }
+    public int getDepartureAirportIndex() { return buf.get(base + DEP_AIRPORT); }
+    public int getDestinationAirportIndex() { return buf.get(base + DES_AIRPORT); }
+    public int getSeatingClassIndex() { return buf.get(base + CLASS); }
+    public String getDepartureAirportCode() { return FlightSearch.AIRPORT_CODES.get(getDepartureAirportIndex()); }
+    public String getDestinationAirportCode() { return FlightSearch.AIRPORT_CODES.get(getDestinationAirportIndex()); }
+    public String getSeatingClass() { return FlightSearch.SEATING_CLASSES.get(getSeatingClassIndex()); }
+    public boolean isEmergencyRowSeating() { return (buf.get(base + FLAGS) & FLAG_EMERGENCY) != 0; }
+    public int getAdultPassengerCount() { return buf.get(base + ADULTS); }
+    public int getChildPassengerCount() { return buf.get(base + CHILDREN); }
+    public int getInfantPassengerCount() { return buf.get(base + INFANTS); }
+    public long getTimestampMillis() { return buf.getLong(base + TIMESTAMP); }
+    public int getRouteKey() { return routeKey(getDepartureAirportIndex(), getDestinationAirportIndex(), getSeatingClassIndex()); }
+
+    /* ---------------------------- replay ---------------------------- */
+
+    /**
+     * Re-run this record through the validator.
+     * Note that C6 is evaluated against today's date, so searches whose
+     * departure has since passed will now be rejected.
+     */
+    public boolean replayInto(FlightSearch fs) {
+        return fs.runFlightSearch(getDepartureDate(), getDepartureAirportCode(), isEmergencyRowSeating(),
+                                  getReturnDate(), getDestinationAirportCode(), getSeatingClass(),
+                                  getAdultPassengerCount(), getChildPassengerCount(), getInfantPassengerCount());
+    }
+}
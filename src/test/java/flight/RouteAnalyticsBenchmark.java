@@ -0,0 +1,167 @@
+package flight;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+
+/**
+ * Accuracy and overhead benchmark for RouteAnalytics against exact counting
+ * (ConcurrentHashMap of LongAdder). Not a JUnit test; run with:
+ *
+ *   mvn test-compile exec:java -Dexec.mainClass=flight.RouteAnalyticsBenchmark -Dexec.args="4 2000000"
+ *
+ * Arguments: threads (default: CPU count), updates per thread (default 2,000,000).
+ * Accuracy and {@code record(int)} cost are measured on a Zipf-distributed
+ * (s = 1.1) stream over 100,000 synthetic keys, far more than the 168 real
+ * route/class combinations (7 x 6 airport pairs x 4 classes), so that sketch
+ * collisions actually occur. The full listener path, {@code onAccepted} on
+ * accepted FlightSearch objects including the route-key lookup, is timed
+ * separately on a Zipf stream over those 168 real combinations.
+ */
+public class RouteAnalyticsBenchmark {
+
+    private static final int KEYS = 100_000;
+    private static final int TOP_K = 20;
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int perThread = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+
+        System.out.println("=".repeat(80));
+        System.out.println("RouteAnalytics Benchmark: " + threads + " threads x " + perThread + " updates, "
+                           + KEYS + " keys (Zipf 1.1)");
+        System.out.println("=".repeat(80));
+
+        int[][] streams = new int[threads][];
+        double[] cdf = zipfCdf(KEYS, 1.1);
+        for (int t = 0; t < threads; t++) streams[t] = zipfStream(cdf, perThread, new Random(42 + t));
+
+        FlightSearch[] searches = acceptedSearches();
+        int[][] searchStreams = new int[threads][];
+        double[] searchCdf = zipfCdf(searches.length, 1.1);
+        for (int t = 0; t < threads; t++) searchStreams[t] = zipfStream(searchCdf, perThread, new Random(7 + t));
+
+        // Warm-up, then measured run for each implementation
+        for (int round = 0; round < 2; round++) {
+            RouteAnalytics sketch = new RouteAnalytics();
+            Map<Integer, LongAdder> exact = new ConcurrentHashMap<>();
+            double sketchNs = run(streams, sketch::record);
+            double exactNs = run(streams, k -> exact.computeIfAbsent(k, x -> new LongAdder()).increment());
+            RouteAnalytics listener = new RouteAnalytics();
+            Map<Integer, LongAdder> exactRoutes = new ConcurrentHashMap<>();
+            double listenerNs = run(searchStreams, i -> listener.onAccepted(searches[i]));
+            double exactListenerNs = run(searchStreams, i -> exactRoutes.computeIfAbsent(
+                searches[i].routeKey(), x -> new LongAdder()).increment());
+            if (round == 0) continue;
+
+            System.out.printf("Update cost:   sketch %.1f ns/op   exact %.1f ns/op  (record(int), per thread)%n",
+                              sketchNs, exactNs);
+            System.out.printf("Listener path: sketch %.1f ns/op   exact %.1f ns/op  (onAccepted incl. route key)%n",
+                              listenerNs, exactListenerNs);
+            System.out.printf("Memory:        sketch ~%d KiB (fixed)   exact %d distinct keys (~%d KiB, grows)%n",
+                              sketch.footprintBytes() / 1024, exact.size(), exact.size() * 112L / 1024);
+            report(sketch, exact);
+        }
+        System.out.println("=".repeat(80));
+    }
+
+    private static void report(RouteAnalytics sketch, Map<Integer, LongAdder> exact) {
+        List<Map.Entry<Integer, LongAdder>> truth = new ArrayList<>(exact.entrySet());
+        truth.sort(Comparator.comparingLong((Map.Entry<Integer, LongAdder> e) -> e.getValue().sum()).reversed());
+        Set<Integer> trueTop = new HashSet<>();
+        for (int i = 0; i < TOP_K; i++) trueTop.add(truth.get(i).getKey());
+
+        int hits = 0;
+        for (RouteAnalytics.RouteCount rc : sketch.snapshot(TOP_K).top()) {
+            if (trueTop.contains(rc.routeKey())) hits++;
+        }
+
+        double maxErr = 0, sumErr = 0;
+        long maxAbs = 0;
+        for (int i = 0; i < truth.size(); i++) {
+            long actual = truth.get(i).getValue().sum();
+            long over = sketch.estimate(truth.get(i).getKey()) - actual;
+            maxAbs = Math.max(maxAbs, over);
+            if (i < TOP_K) {
+                double rel = (double) over / actual;
+                maxErr = Math.max(maxErr, rel);
+                sumErr += rel;
+            }
+        }
+        System.out.printf("Top-%d recall: %d/%d%n", TOP_K, hits, TOP_K);
+        System.out.printf("Top-%d error:  mean %.4f%%  max %.4f%% overcount%n",
+                          TOP_K, 100 * sumErr / TOP_K, 100 * maxErr);
+        System.out.printf("All keys:      max overcount %d of %d total (bound e*N/w = %.0f)%n",
+                          maxAbs, sketch.total(), Math.E * sketch.total() / RouteAnalytics.DEFAULT_WIDTH);
+    }
+
+    /** @return one accepted FlightSearch for every valid route/class combination (168) */
+    private static FlightSearch[] acceptedSearches() {
+        DateTimeFormatter df = DateTimeFormatter.ofPattern("dd/MM/uuuu");
+        String dep = LocalDate.now().plusDays(1).format(df);
+        String ret = LocalDate.now().plusDays(8).format(df);
+        List<FlightSearch> out = new ArrayList<>();
+        for (String from : FlightSearch.AIRPORT_CODES) {
+            for (String to : FlightSearch.AIRPORT_CODES) {
+                for (String cls : FlightSearch.SEATING_CLASSES) {
+                    FlightSearch fs = new FlightSearch();
+                    if (fs.runFlightSearch(dep, from, false, ret, to, cls, 1, 0, 0)) out.add(fs);
+                }
+            }
+        }
+        return out.toArray(new FlightSearch[0]);
+    }
+
+    /** @return average nanoseconds per update, per thread */
+    private static double run(int[][] streams, IntConsumer update) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int[] stream : streams) {
+            Thread w = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                for (int key : stream) update.accept(key);
+            });
+            w.start();
+            workers.add(w);
+        }
+        long t0 = System.nanoTime();
+        start.countDown();
+        for (Thread w : workers) w.join();
+        return (double) (System.nanoTime() - t0) / streams[0].length;
+    }
+
+    private static double[] zipfCdf(int n, double s) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1 / Math.pow(i + 1, s);
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < n; i++) cdf[i] /= sum;
+        return cdf;
+    }
+
+    private static int[] zipfStream(double[] cdf, int length, Random rnd) {
+        int[] out = new int[length];
+        for (int i = 0; i < length; i++) {
+            int k = Arrays.binarySearch(cdf, rnd.nextDouble());
+            out[i] = k >= 0 ? k : Math.min(-k - 1, cdf.length - 1);
+        }
+        return out;
+    }
+}
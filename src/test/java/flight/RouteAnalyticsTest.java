@@ -0,0 +1,110 @@
+package flight;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.ResolverStyle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.*;
+
+/**
+ * JUnit 5 test class for RouteAnalytics.
+ * Verifies that the validation path feeds the analytics, that estimates never
+ * undercount, and that the snapshot reports the heavy hitters in order.
+ */
+class RouteAnalyticsTest {
+
+    /* ---------- Date formatter and constants ---------- */
+    private static final DateTimeFormatter DF = DateTimeFormatter.ofPattern("dd/MM/uuuu")
+                                                                  .withResolverStyle(ResolverStyle.STRICT);
+    private static final LocalDate TODAY = LocalDate.now();
+    private static final String VALID_DEP_DATE = TODAY.plusDays(1).format(DF);
+    private static final String VALID_RET_DATE = TODAY.plusDays(7).format(DF);
+
+    @Test
+    @DisplayName("Accepted searches are counted per route; rejected searches are not")
+    void fedByValidation() {
+        RouteAnalytics analytics = new RouteAnalytics();
+        FlightSearch fs = new FlightSearch(analytics);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(fs.runFlightSearch(VALID_DEP_DATE, "syd", false, VALID_RET_DATE, "mel", "economy", 1, 0, 0));
+        }
+        assertTrue(fs.runFlightSearch(VALID_DEP_DATE, "lax", false, VALID_RET_DATE, "cdg", "first", 1, 0, 0));
+        // Rejected (C9 invalid class): not counted
+        assertFalse(fs.runFlightSearch(VALID_DEP_DATE, "syd", false, VALID_RET_DATE, "mel", "luxury", 1, 0, 0));
+
+        RouteAnalytics.Snapshot snap = analytics.snapshot(10);
+        assertEquals(4, snap.total());
+        assertEquals(2, snap.top().size());
+        assertEquals("syd-mel/economy", SearchRecord.describeRouteKey(snap.top().get(0).routeKey()));
+        assertEquals(3, snap.top().get(0).estimate());
+        assertEquals("lax-cdg/first", SearchRecord.describeRouteKey(snap.top().get(1).routeKey()));
+        assertEquals(1, snap.top().get(1).estimate());
+    }
+
+    @Test
+    @DisplayName("Skewed stream over a small sketch: no undercounts and the heavy hitters are found")
+    void heavyHittersUnderSkew() throws Exception {
+        // Deliberately small sketch/summary so collisions and evictions happen
+        RouteAnalytics analytics = new RouteAnalytics(64, 4, 16);
+        int keys = 2000, threads = 4, perThread = 50_000;
+        long[] exact = new long[keys];
+
+        List<Thread> workers = new ArrayList<>();
+        List<int[]> streams = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Random rnd = new Random(t);
+            int[] stream = new int[perThread];
+            for (int i = 0; i < perThread; i++) {
+                // Keys 0-4 are heavy (about half the stream); the rest is a uniform tail
+                stream[i] = rnd.nextBoolean() ? rnd.nextInt(5) : 5 + rnd.nextInt(keys - 5);
+                exact[stream[i]]++;
+            }
+            streams.add(stream);
+            workers.add(new Thread(() -> {
+                for (int key : stream) analytics.record(key);
+            }));
+        }
+        for (Thread w : workers) w.start();
+        for (Thread w : workers) w.join();
+
+        assertEquals((long) threads * perThread, analytics.total());
+        for (int key = 0; key < keys; key++) {
+            assertTrue(analytics.estimate(key) >= exact[key], "estimate must never undercount key " + key);
+        }
+
+        List<Integer> top = new ArrayList<>();
+        for (RouteAnalytics.RouteCount rc : analytics.snapshot(5).top()) top.add(rc.routeKey());
+        assertEquals(5, top.size());
+        assertTrue(top.containsAll(List.of(0, 1, 2, 3, 4)), "top-5 should be the heavy keys, was " + top);
+    }
+
+    @Test
+    @DisplayName("Few distinct routes (table never full): at most one update in eight takes the stripe lock")
+    void updatesMostlyLockFree() {
+        RouteAnalytics analytics = new RouteAnalytics();
+        for (int i = 0; i < 80_000; i++) analytics.record(SearchRecord.routeKey(i % 2, 2 + i % 3, i % 4));
+        assertTrue(analytics.lockedUpdates() <= 80_000 / 8 + 12, "locked updates: " + analytics.lockedUpdates());
+    }
+
+    @Test
+    @DisplayName("Route keys not produced by routeKey are described in hex")
+    void describeArbitraryKeys() {
+        assertEquals("0x186a0=3", new RouteAnalytics.RouteCount(100_000, 3).toString());
+        assertEquals("0xffffffff", SearchRecord.describeRouteKey(-1));
+        assertEquals("doh-syd/first=1", new RouteAnalytics.RouteCount(SearchRecord.routeKey(6, 0, 3), 1).toString());
+    }
+
+    @Test
+    @DisplayName("Invalid sketch dimensions and snapshot sizes are rejected")
+    void invalidDimensions() {
+        assertThrows(IllegalArgumentException.class, () -> new RouteAnalytics(0, 4, 16));
+        assertThrows(IllegalArgumentException.class, () -> new RouteAnalytics(64, 9, 16));
+        assertThrows(IllegalArgumentException.class, () -> new RouteAnalytics(64, 4, 0));
+        assertThrows(IllegalArgumentException.class, () -> new RouteAnalytics().snapshot(-1));
+        assertEquals(0, new RouteAnalytics().snapshot(0).top().size());
+    }
+}
@@ -0,0 +1,211 @@
+package flight;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.ResolverStyle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JUnit 5 test class for SearchJournal / SearchRecord.
+ * Verifies that accepted searches are journaled, rejected ones are not,
+ * records survive a round trip through the segment files, and concurrent
+ * appends across segment roll-overs are all replayed.
+ */
+class SearchJournalTest {
+
+    /* ---------- Date formatter and constants ---------- */
+    private static final DateTimeFormatter DF = DateTimeFormatter.ofPattern("dd/MM/uuuu")
+                                                                  .withResolverStyle(ResolverStyle.STRICT);
+    private static final LocalDate TODAY = LocalDate.now();
+    private static final String VALID_DEP_DATE = TODAY.plusDays(1).format(DF);
+    private static final String VALID_RET_DATE = TODAY.plusDays(7).format(DF);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Only accepted searches are journaled, and replay restores every field")
+    void roundTrip() throws Exception {
+        try (SearchJournal journal = new SearchJournal(dir, 4)) {
+            FlightSearch fs = new FlightSearch(journal);
+
+            // Accepted: journaled
+            assertTrue(fs.runFlightSearch(VALID_DEP_DATE, "syd", true, VALID_RET_DATE, "lax",
+                                          "economy", 2, 0, 0));
+            // Rejected (C11 same airport): not journaled
+            assertFalse(fs.runFlightSearch(VALID_DEP_DATE, "syd", false, VALID_RET_DATE, "syd",
+                                           "economy", 1, 0, 0));
+            assertEquals(1, journal.size());
+        }
+
+        List<String> seen = new ArrayList<>();
+        long count = SearchJournal.replay(dir, r -> {
+            seen.add(r.getDepartureDate() + " " + r.getDepartureAirportCode() + " " + r.isEmergencyRowSeating()
+                     + " " + r.getReturnDate() + " " + r.getDestinationAirportCode() + " " + r.getSeatingClass()
+                     + " " + r.getAdultPassengerCount() + r.getChildPassengerCount() + r.getInfantPassengerCount());
+            // Replaying into the validator must accept it again
+            assertTrue(r.replayInto(new FlightSearch()));
+        });
+
+        assertEquals(1, count);
+        assertEquals(List.of(VALID_DEP_DATE + " syd true " + VALID_RET_DATE + " lax economy 200"), seen);
+    }
+
+    @Test
+    @DisplayName("Concurrent appends across segment roll-overs are all replayed; reopen continues the sequence")
+    void concurrentAppendsAndReopen() throws Exception {
+        int threads = 4, perThread = 1000;
+        try (SearchJournal journal = new SearchJournal(dir, 64)) {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Thread w = new Thread(() -> {
+                    FlightSearch fs = new FlightSearch(journal);
+                    try {
+                        start.await();
+                    } catch (InterruptedException ex) {
+                        return;
+                    }
+                    for (int i = 0; i < perThread; i++) {
+                        fs.runFlightSearch(VALID_DEP_DATE, "mel", false, VALID_RET_DATE, "doh",
+                                           "business", 1 + i % 3, 0, 0);
+                    }
+                });
+                w.start();
+                workers.add(w);
+            }
+            start.countDown();
+            for (Thread w : workers) w.join();
+        }
+        assertEquals(threads * perThread, SearchJournal.replay(dir, r -> { }));
+
+        // Reopening appends after the existing records
+        try (SearchJournal journal = new SearchJournal(dir, 64)) {
+            assertEquals(threads * perThread, journal.size());
+            FlightSearch fs = new FlightSearch(journal);
+            assertTrue(fs.runFlightSearch(VALID_DEP_DATE, "cdg", false, VALID_RET_DATE, "pvg",
+                                          "first", 1, 0, 0));
+        }
+        assertEquals(threads * perThread + 1, SearchJournal.replay(dir, r -> { }));
+    }
+
+    @Test
+    @DisplayName("Entering a segment forces and releases the previous one and pre-maps the next off the writer thread")
+    void backgroundRollOver() throws Exception {
+        try (SearchJournal journal = new SearchJournal(dir, 4)) {
+            journal.awaitRollOver();
+            FlightSearch fs = new FlightSearch(journal);
+            for (int i = 0; i < 5 * 4 + 1; i++) {
+                assertTrue(fs.runFlightSearch(VALID_DEP_DATE, "syd", false, VALID_RET_DATE, "mel",
+                                              "economy", 1, 0, 0));
+                if (i % 4 == 0) journal.awaitRollOver();
+            }
+            // Now in segment 5: 0-4 forced and released, only 5 and the pre-mapped 6 are held
+            assertEquals(4, journal.forcedThrough);
+            assertEquals(Set.of(5L, 6L), journal.mappedSegments());
+            assertEquals(0, journal.writerMappings.sum(), "no segment should have been mapped by a writer");
+        }
+        assertEquals(21, SearchJournal.replay(dir, r -> { }));
+    }
+
+    @Test
+    @DisplayName("A hole left by a crashed writer is skipped on replay and never reused on reopen")
+    void holeRecovery() throws Exception {
+        try (SearchJournal journal = new SearchJournal(dir, 4)) {
+            FlightSearch fs = new FlightSearch(journal);
+            for (int i = 0; i < 6; i++) {
+                assertTrue(fs.runFlightSearch(VALID_DEP_DATE, "syd", false, VALID_RET_DATE, "mel",
+                                              "economy", 1 + i % 3, 0, 0));
+            }
+        }
+        // Simulate a crash between claiming slot 2 and committing it
+        try (FileChannel ch = FileChannel.open(dir.resolve("segment-0000000000.wsj"), StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.allocate(SearchRecord.SIZE), 2L * SearchRecord.SIZE);
+        }
+        assertEquals(5, SearchJournal.replay(dir, r -> { }));
+
+        try (SearchJournal journal = new SearchJournal(dir, 4)) {
+            assertEquals(6, journal.size(), "appends must continue after the last committed slot");
+            assertTrue(new FlightSearch(journal).runFlightSearch(VALID_DEP_DATE, "cdg", false, VALID_RET_DATE,
+                                                                 "pvg", "first", 1, 0, 0));
+        }
+        List<String> routes = new ArrayList<>();
+        assertEquals(6, SearchJournal.replay(dir, r -> routes.add(r.getDepartureAirportCode())));
+        assertEquals("cdg", routes.get(5));
+    }
+
+    @Test
+    @DisplayName("Reopening with a different segment size is rejected and leaves the journal intact")
+    void segmentSizeMismatch() throws Exception {
+        try (SearchJournal journal = new SearchJournal(dir, 4)) {
+            FlightSearch fs = new FlightSearch(journal);
+            for (int i = 0; i < 6; i++) {
+                assertTrue(fs.runFlightSearch(VALID_DEP_DATE, "syd", false, VALID_RET_DATE, "mel",
+                                              "economy", 1, 0, 0));
+            }
+        }
+        assertThrows(IOException.class, () -> new SearchJournal(dir));
+        assertThrows(IOException.class, () -> new SearchJournal(dir, 8));
+        assertEquals(4L * SearchRecord.SIZE, Files.size(dir.resolve("segment-0000000000.wsj")));
+
+        try (SearchJournal journal = new SearchJournal(dir, 4)) {
+            assertEquals(6, journal.size());
+        }
+        assertEquals(6, SearchJournal.replay(dir, r -> { }));
+    }
+
+    @Test
+    @DisplayName("Segment sizes that cannot be mapped are rejected")
+    void invalidSegmentSize() {
+        assertThrows(IllegalArgumentException.class, () -> new SearchJournal(dir, 0));
+        assertThrows(IllegalArgumentException.class,
+                     () -> new SearchJournal(dir, Integer.MAX_VALUE / SearchRecord.SIZE + 1));
+    }
+
+    @Test
+    @DisplayName("A closed journal drops accepted searches instead of failing validation")
+    void appendAfterClose() throws Exception {
+        SearchJournal journal = new SearchJournal(dir);
+        journal.close();
+        FlightSearch fs = new FlightSearch(journal);
+        assertTrue(fs.runFlightSearch(VALID_DEP_DATE, "syd", false, VALID_RET_DATE, "mel", "economy", 1, 0, 0));
+        assertEquals(1, journal.droppedCount());
+        assertEquals(0, fs.getListenerFailureCount());
+        // Direct appends still report the misuse
+        assertThrows(IllegalStateException.class, () -> journal.append(fs));
+    }
+
+    @Test
+    @DisplayName("A failing listener is counted and does not change the validation result")
+    void failingListenerContained() {
+        FlightSearch fs = new FlightSearch(search -> { throw new IllegalStateException("boom"); });
+        assertTrue(fs.runFlightSearch(VALID_DEP_DATE, "syd", false, VALID_RET_DATE, "mel", "economy", 1, 0, 0));
+        assertEquals("syd", fs.getDepartureAirportCode());
+        assertEquals(1, fs.getListenerFailureCount());
+    }
+
+    @Test
+    @DisplayName("A chained listener still runs when the one before it fails")
+    void chainContinuesAfterFailure() throws Exception {
+        SearchJournal journal = new SearchJournal(dir);
+        journal.close();
+        RouteAnalytics analytics = new RouteAnalytics();
+        SearchListener closedJournal = journal::append;
+        FlightSearch fs = new FlightSearch(closedJournal.andThen(analytics));
+        assertTrue(fs.runFlightSearch(VALID_DEP_DATE, "syd", false, VALID_RET_DATE, "mel", "economy", 1, 0, 0));
+        assertEquals(1, fs.getListenerFailureCount());
+        assertEquals(1, analytics.total());
+    }
+}
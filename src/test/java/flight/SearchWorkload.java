@@ -0,0 +1,349 @@
+package flight;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.format.DateTimeFormatter;
+import java.time.format.ResolverStyle;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Seedable generator of realistic flight search requests for load and soak
+ * testing. Each request is built to be either valid or to fail exactly one
+ * chosen condition (C1-C11), and carries that expected {@link Outcome}.
+ *
+ * Valid searches follow skewed distributions: route popularity is Zipf-like,
+ * departure dates cluster in the coming weeks, most trips are short and most
+ * travellers fly economy. The same seed (and the same day) always yields the
+ * same sequence.
+ *
+ * Dates are fixed relative to the day the workload is constructed. Valid
+ * departures start tomorrow, so generated requests keep their expected
+ * outcomes through the following day ({@link #validThrough}); after that,
+ * valid searches start failing C6.
+ *
+ * Requests can be kept in memory ({@link #generate}), written to and read back
+ * from tab-separated files ({@link #write}, {@link #read}), or - for the valid
+ * subset, since the binary format only encodes accepted searches - appended to
+ * a {@link SearchJournal} ({@link #journal}).
+ */
+public class SearchWorkload {
+
+    /* ---------------------- expected outcomes ----------------------- */
+    public enum Outcome { VALID, C1, C2, C3, C4, C5, C6, C7, C8, C9, C10, C11 }
+
+    /** One generated search and the result the validator should give for it. */
+    public static final class Request {
+        public final String departureDate;
+        public final String departureAirportCode;
+        public final boolean emergencyRowSeating;
+        public final String returnDate;
+        public final String destinationAirportCode;
+        public final String seatingClass;
+        public final int adultPassengerCount;
+        public final int childPassengerCount;
+        public final int infantPassengerCount;
+        public final Outcome expected;
+
+        Request(String departureDate, String departureAirportCode, boolean emergencyRowSeating,
+                String returnDate, String destinationAirportCode, String seatingClass,
+                int adults, int children, int infants, Outcome expected) {
+            this.departureDate = departureDate;
+            this.departureAirportCode = departureAirportCode;
+            this.emergencyRowSeating = emergencyRowSeating;
+            this.returnDate = returnDate;
+            this.destinationAirportCode = destinationAirportCode;
+            this.seatingClass = seatingClass;
+            this.adultPassengerCount = adults;
+            this.childPassengerCount = children;
+            this.infantPassengerCount = infants;
+            this.expected = expected;
+        }
+
+        public boolean runOn(FlightSearch fs) {
+            return fs.runFlightSearch(departureDate, departureAirportCode, emergencyRowSeating,
+                                      returnDate, destinationAirportCode, seatingClass,
+                                      adultPassengerCount, childPassengerCount, infantPassengerCount);
+        }
+    }
+
+    /* -------------------------- constants --------------------------- */
+    private static final DateTimeFormatter DF = DateTimeFormatter.ofPattern("dd/MM/uuuu")
+                                                                  .withResolverStyle(ResolverStyle.STRICT);
+    private static final int PAST_DAYS = 60;
+    private static final int FUTURE_DAYS = 400;
+    private static final String[] BAD_CLASSES = {"luxury", "Economy", "premium", "", "economy "};
+    private static final String[] BAD_AIRPORTS = {"xyz", "SYD", "", "sydney", "jfk"};
+    private static final String[] FILE_HEADER = {
+        "expected", "departureDate", "departureAirportCode", "emergencyRowSeating", "returnDate",
+        "destinationAirportCode", "seatingClass", "adults", "children", "infants"
+    };
+
+    /* -------------------------- attributes -------------------------- */
+    private final SplittableRandom rnd;
+    private final Outcome[] outcomes;
+    private final double[] outcomeCdf;
+    private final String[][] routes;
+    private final double[] routeCdf;
+    private final String[] dates = new String[PAST_DAYS + FUTURE_DAYS];
+    private final String[] badDates;
+    private final LocalDate validThrough;
+
+    /* -------------------------- constructors ------------------------ */
+    public SearchWorkload(long seed) {
+        this(seed, defaultMix(), 1.0);
+    }
+
+    /**
+     * @param seed      random seed
+     * @param mix       relative weight of each outcome; missing outcomes are never generated
+     * @param routeSkew Zipf exponent of route popularity (0 = uniform)
+     */
+    public SearchWorkload(long seed, Map<Outcome, Double> mix, double routeSkew) {
+        this.rnd = new SplittableRandom(seed);
+
+        List<Outcome> kinds = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+        for (Outcome k : Outcome.values()) { // enum order, so the sequence does not depend on the map type
+            double w = mix.getOrDefault(k, 0.0);
+            if (w < 0) throw new IllegalArgumentException("negative weight for " + k);
+            if (w > 0) {
+                kinds.add(k);
+                weights.add(w);
+            }
+        }
+        if (kinds.isEmpty()) throw new IllegalArgumentException("mix has no positive weight");
+        this.outcomes = kinds.toArray(new Outcome[0]);
+        this.outcomeCdf = cdf(weights.stream().mapToDouble(Double::doubleValue).toArray());
+
+        // All ordered pairs of distinct airports, shuffled by seed so popularity varies between seeds
+        List<String[]> pairs = new ArrayList<>();
+        for (String a : FlightSearch.AIRPORT_CODES) {
+            for (String b : FlightSearch.AIRPORT_CODES) {
+                if (!a.equals(b)) pairs.add(new String[] {a, b});
+            }
+        }
+        for (int i = pairs.size() - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            pairs.set(i, pairs.set(j, pairs.get(i)));
+        }
+        this.routes = pairs.toArray(new String[0][]);
+        double[] routeWeights = new double[routes.length];
+        for (int i = 0; i < routes.length; i++) routeWeights[i] = 1 / Math.pow(i + 1, routeSkew);
+        this.routeCdf = cdf(routeWeights);
+
+        // Pre-formatted dates relative to today, so generation does not format per request
+        LocalDate today = LocalDate.now();
+        this.validThrough = today.plusDays(1);
+        for (int i = 0; i < dates.length; i++) dates[i] = today.plusDays(i - PAST_DAYS).format(DF);
+        int year = today.getYear() + 1;
+        int nonLeap = year;
+        while (Year.isLeap(nonLeap)) nonLeap++;
+        this.badDates = new String[] {
+            "31/04/" + year, "29/02/" + nonLeap, "00/01/" + year, "15/13/" + year,
+            "1/1/" + year, year + "-01-15", "", "tomorrow"
+        };
+    }
+
+    /** @return last day on which generated requests still have their expected outcomes */
+    public LocalDate validThrough() {
+        return validThrough;
+    }
+
+    /** Mostly valid searches (70%) with the remainder spread evenly over C1-C11. */
+    public static Map<Outcome, Double> defaultMix() {
+        Map<Outcome, Double> mix = new EnumMap<>(Outcome.class);
+        for (Outcome o : Outcome.values()) mix.put(o, o == Outcome.VALID ? 0.70 : 0.30 / 11);
+        return mix;
+    }
+
+    /* --------------------------- generation ------------------------- */
+
+    /** @return the next request, with its outcome drawn from the mix */
+    public Request next() {
+        return next(outcomes[pick(outcomeCdf)]);
+    }
+
+    /** @return the next request, built to have the given outcome */
+    public Request next(Outcome outcome) {
+        /* ---- valid base ---- */
+        String[] route = routes[pick(routeCdf)];
+        String dep = route[0], des = route[1];
+        // From tomorrow, so a request stays valid if a run crosses midnight
+        int depOffset = 1 + Math.min(FUTURE_DAYS - 33, (int) (-Math.log(1 - rnd.nextDouble()) * 30));
+        int stay = Math.min(30, (int) (-Math.log(1 - rnd.nextDouble()) * 7));
+        String depDate = future(depOffset);
+        String retDate = future(depOffset + stay);
+
+        int adults = 1 + (rnd.nextInt(10) < 7 ? rnd.nextInt(2) : rnd.nextInt(4));
+        int children = rnd.nextInt(10) < 7 ? 0 : rnd.nextInt(Math.min(2 * adults, 9 - adults) + 1);
+        int infants = rnd.nextInt(10) < 8 ? 0 : rnd.nextInt(Math.min(adults, 9 - adults - children) + 1);
+
+        String cls = seatingClass();
+        if (children > 0 && "first".equals(cls)) cls = "business";
+        if (infants > 0 && "business".equals(cls)) cls = "premium economy";
+        boolean emergency = "economy".equals(cls) && children == 0 && infants == 0 && rnd.nextInt(20) == 0;
+
+        /* ---- break exactly one condition ---- */
+        switch (outcome) {
+            case VALID:
+                break;
+            case C1:
+                if (rnd.nextBoolean()) {
+                    adults = 0; children = 0; infants = 0;
+                } else {
+                    adults = 10 + rnd.nextInt(3); children = 0; infants = 0;
+                }
+                break;
+            case C2:
+                infants = 0;
+                adults = Math.min(adults, 7);
+                children = 1 + rnd.nextInt(Math.min(2 * adults, 9 - adults));
+                if (rnd.nextBoolean()) {
+                    cls = "first"; emergency = false;
+                } else {
+                    cls = "economy"; emergency = true;
+                }
+                break;
+            case C3:
+                children = 0;
+                adults = Math.min(adults, 4);
+                infants = 1 + rnd.nextInt(adults);
+                if (rnd.nextBoolean()) {
+                    cls = "business"; emergency = false;
+                } else {
+                    cls = "economy"; emergency = true;
+                }
+                break;
+            case C4:
+                adults = 1 + rnd.nextInt(2);
+                children = 2 * adults + 1 + rnd.nextInt(9 - 3 * adults);
+                infants = 0; cls = "economy"; emergency = false;
+                break;
+            case C5:
+                adults = 1 + rnd.nextInt(4);
+                infants = adults + 1 + rnd.nextInt(9 - 2 * adults);
+                children = 0; cls = "economy"; emergency = false;
+                break;
+            case C6:
+                depDate = past(1 + rnd.nextInt(PAST_DAYS));
+                break;
+            case C7:
+                if (rnd.nextBoolean()) depDate = badDates[rnd.nextInt(badDates.length)];
+                else retDate = badDates[rnd.nextInt(badDates.length)];
+                break;
+            case C8:
+                depOffset = 1 + rnd.nextInt(FUTURE_DAYS - 2);
+                depDate = future(depOffset);
+                retDate = future(depOffset - 1 - rnd.nextInt(Math.min(depOffset, 14)));
+                break;
+            case C9:
+                cls = BAD_CLASSES[rnd.nextInt(BAD_CLASSES.length)];
+                emergency = false;
+                break;
+            case C10:
+                children = 0; infants = 0;
+                cls = FlightSearch.SEATING_CLASSES.get(1 + rnd.nextInt(FlightSearch.SEATING_CLASSES.size() - 1));
+                emergency = true;
+                break;
+            case C11:
+                if (rnd.nextBoolean()) des = dep;
+                else if (rnd.nextBoolean()) dep = BAD_AIRPORTS[rnd.nextInt(BAD_AIRPORTS.length)];
+                else des = BAD_AIRPORTS[rnd.nextInt(BAD_AIRPORTS.length)];
+                break;
+        }
+        return new Request(depDate, dep, emergency, retDate, des, cls, adults, children, infants, outcome);
+    }
+
+    /** @return {@code count} requests drawn from the mix */
+    public Request[] generate(int count) {
+        Request[] out = new Request[count];
+        for (int i = 0; i < count; i++) out[i] = next();
+        return out;
+    }
+
+    private String seatingClass() {
+        int r = rnd.nextInt(100);
+        if (r < 70) return "economy";
+        if (r < 85) return "premium economy";
+        if (r < 95) return "business";
+        return "first";
+    }
+
+    private String future(int days) { return dates[PAST_DAYS + days]; }
+    private String past(int days) { return dates[PAST_DAYS - days]; }
+
+    private int pick(double[] cdf) {
+        double u = rnd.nextDouble();
+        int lo = 0, hi = cdf.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cdf[mid] < u) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static double[] cdf(double[] weights) {
+        double[] out = new double[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) out[i] = sum += weights[i];
+        for (int i = 0; i < weights.length; i++) out[i] /= sum;
+        out[out.length - 1] = 1.0;
+        return out;
+    }
+
+    /* ------------------------------ I/O ----------------------------- */
+
+    /** Write {@code count} requests from the mix to a tab-separated file with a header line. */
+    public void write(Path file, int count) throws IOException {
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            w.write(String.join("\t", FILE_HEADER));
+            w.newLine();
+            for (int i = 0; i < count; i++) {
+                Request r = next();
+                w.write(r.expected + "\t" + r.departureDate + "\t" + r.departureAirportCode + "\t"
+                        + r.emergencyRowSeating + "\t" + r.returnDate + "\t" + r.destinationAirportCode + "\t"
+                        + r.seatingClass + "\t" + r.adultPassengerCount + "\t" + r.childPassengerCount + "\t"
+                        + r.infantPassengerCount);
+                w.newLine();
+            }
+        }
+    }
+
+    /** Read requests written by {@link #write}. */
+    public static List<Request> read(Path file) throws IOException {
+        List<Request> out = new ArrayList<>();
+        try (BufferedReader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            r.readLine(); // header
+            for (String line = r.readLine(); line != null; line = r.readLine()) {
+                String[] f = line.split("\t", -1);
+                if (f.length != FILE_HEADER.length) throw new IOException("malformed workload line: " + line);
+                out.add(new Request(f[1], f[2], Boolean.parseBoolean(f[3]), f[4], f[5], f[6],
+                                    Integer.parseInt(f[7]), Integer.parseInt(f[8]), Integer.parseInt(f[9]),
+                                    Outcome.valueOf(f[0])));
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Append {@code count} valid requests to {@code journal} in its binary
+     * format, by running them through the validator.
+     */
+    public void journal(SearchJournal journal, int count) {
+        FlightSearch fs = new FlightSearch(journal);
+        for (int i = 0; i < count; i++) {
+            if (!next(Outcome.VALID).runOn(fs)) throw new IllegalStateException("generated valid search was rejected");
+        }
+    }
+}
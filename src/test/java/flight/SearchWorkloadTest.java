@@ -0,0 +1,120 @@
+package flight;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.ResolverStyle;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JUnit 5 test class for SearchWorkload and SoakHarness.
+ * Verifies that every generated request gets the outcome it was built for,
+ * that generation is reproducible from a seed, that the file and journal
+ * outputs round-trip, and that a short soak run reports sane figures.
+ */
+class SearchWorkloadTest {
+
+    private static final DateTimeFormatter DF = DateTimeFormatter.ofPattern("dd/MM/uuuu")
+                                                                  .withResolverStyle(ResolverStyle.STRICT);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Each outcome (valid, C1-C11) is honoured by the validator")
+    void everyOutcomeMatchesValidator() {
+        SearchWorkload workload = new SearchWorkload(7);
+        for (SearchWorkload.Outcome outcome : SearchWorkload.Outcome.values()) {
+            for (int i = 0; i < 2000; i++) {
+                SearchWorkload.Request r = workload.next(outcome);
+                assertEquals(outcome, r.expected);
+                if (outcome == SearchWorkload.Outcome.VALID) {
+                    assertNotEquals(LocalDate.now().format(DF), r.departureDate, "valid departures start tomorrow");
+                }
+                assertEquals(outcome == SearchWorkload.Outcome.VALID, r.runOn(new FlightSearch()),
+                             outcome + " request gave the wrong result: " + r.departureDate + " " + r.departureAirportCode
+                             + " " + r.emergencyRowSeating + " " + r.returnDate + " " + r.destinationAirportCode + " '"
+                             + r.seatingClass + "' " + r.adultPassengerCount + "/" + r.childPassengerCount + "/"
+                             + r.infantPassengerCount);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Same seed gives the same sequence; the mix controls the outcome proportions")
+    void seededAndMixed() {
+        SearchWorkload.Request[] a = new SearchWorkload(42).generate(1000);
+        SearchWorkload.Request[] b = new SearchWorkload(42).generate(1000);
+        for (int i = 0; i < a.length; i++) {
+            assertEquals(a[i].expected, b[i].expected);
+            assertEquals(a[i].departureDate, b[i].departureDate);
+            assertEquals(a[i].departureAirportCode, b[i].departureAirportCode);
+            assertEquals(a[i].adultPassengerCount, b[i].adultPassengerCount);
+        }
+
+        Map<SearchWorkload.Outcome, Double> mix = new EnumMap<>(SearchWorkload.Outcome.class);
+        mix.put(SearchWorkload.Outcome.VALID, 3.0);
+        mix.put(SearchWorkload.Outcome.C7, 1.0);
+        int valid = 0;
+        for (SearchWorkload.Request r : new SearchWorkload(1, mix, 1.0).generate(20_000)) {
+            assertTrue(r.expected == SearchWorkload.Outcome.VALID || r.expected == SearchWorkload.Outcome.C7);
+            if (r.expected == SearchWorkload.Outcome.VALID) valid++;
+        }
+        assertEquals(0.75, valid / 20_000.0, 0.02);
+    }
+
+    @Test
+    @DisplayName("Requests round-trip through a file; valid requests can be written to the binary journal")
+    void fileAndJournalOutput() throws Exception {
+        Path file = dir.resolve("workload.tsv");
+        new SearchWorkload(3).write(file, 500);
+        List<SearchWorkload.Request> read = SearchWorkload.read(file);
+        assertEquals(500, read.size());
+        for (SearchWorkload.Request r : read) {
+            assertEquals(r.expected == SearchWorkload.Outcome.VALID, r.runOn(new FlightSearch()));
+        }
+
+        try (SearchJournal journal = new SearchJournal(dir.resolve("journal"), 128)) {
+            new SearchWorkload(3).journal(journal, 300);
+        }
+        assertEquals(300, SearchJournal.replay(dir.resolve("journal"), rec -> { }));
+    }
+
+    @Test
+    @DisplayName("Short soak run: no mismatches and populated metrics")
+    void soakSmoke() throws Exception {
+        SearchWorkload.Request[] pool = new SearchWorkload(5).generate(10_000);
+        SoakHarness.Report report = SoakHarness.run(pool, 2, Duration.ofMillis(300), new RouteAnalytics());
+        assertTrue(report.operations > 0);
+        assertEquals(0, report.mismatches);
+        assertTrue(report.p50Nanos > 0 && report.p50Nanos <= report.p99Nanos);
+        // Percentiles report their bucket's upper bound, so can exceed the max by at most that rounding
+        assertTrue(report.p99Nanos <= SoakHarness.bucketUpperBound(SoakHarness.bucket(report.maxNanos)));
+    }
+
+    @Test
+    @DisplayName("GC pauses are told apart from concurrent cycles by action and cause, not collector name")
+    void gcPauseClassification() {
+        assertTrue(SoakHarness.GcMonitor.isPause("end of minor GC", "G1 Evacuation Pause"));
+        assertTrue(SoakHarness.GcMonitor.isPause("end of GC pause", "G1 Remark"));   // "G1 Concurrent GC" bean
+        assertTrue(SoakHarness.GcMonitor.isPause("end of GC pause", "Allocation Rate"));  // "ZGC Pauses" bean
+        assertFalse(SoakHarness.GcMonitor.isPause("end of GC cycle", "Allocation Rate")); // "ZGC Cycles" bean
+        assertFalse(SoakHarness.GcMonitor.isPause("end of major GC", "No GC"));
+    }
+
+    @Test
+    @DisplayName("Latency histogram buckets are contiguous and bound their values")
+    void histogramBuckets() {
+        for (long v : new long[] {0, 1, 15, 16, 17, 31, 32, 1000, 123_456, 10_000_000_000L}) {
+            int b = SoakHarness.bucket(v);
+            assertTrue(SoakHarness.bucketUpperBound(b) >= v, "upper bound of bucket for " + v);
+            assertTrue(b == 0 || SoakHarness.bucketUpperBound(b - 1) < v, "previous bucket must end below " + v);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package flight;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+/**
+ * Soak harness for FlightSearch::runFlightSearch. Drives the validator from N
+ * threads over a pre-generated {@link SearchWorkload} pool for a set duration
+ * and reports throughput, latency percentiles, allocation rate and GC pauses.
+ * Every result is checked against the request's expected outcome, so a
+ * regression in correctness shows up as mismatches. Not a JUnit test; run with:
+ *
+ *   mvn test-compile exec:java -Dexec.mainClass=flight.SoakHarness -Dexec.args="4 60 1 none"
+ *
+ * Arguments: threads (default: CPU count), seconds (default 30), seed (default 1),
+ * listeners: none | journal | analytics | both (default none). The journal is
+ * written to a temporary directory that is removed afterwards. The request pool
+ * is generated once, and its dates only hold through the day after generation
+ * (see {@link SearchWorkload#validThrough}). A run that would outlast that is
+ * rejected rather than reporting false C6 mismatches.
+ */
+public class SoakHarness {
+
+    private static final int POOL_SIZE = 1 << 20;
+
+    /* ---------------------------- report ---------------------------- */
+
+    /** Results of one soak run. Allocation figures are -1 when the JVM cannot measure them. */
+    public static final class Report {
+        public final int threads;
+        public final long elapsedNanos;
+        public final long operations;
+        public final long mismatches;
+        public final long p50Nanos, p90Nanos, p99Nanos, p999Nanos, maxNanos;
+        public final long allocatedBytes;
+        public final long gcCount;
+        public final long gcPauseMillis;
+        public final long maxGcPauseMillis;
+
+        Report(int threads, long elapsedNanos, long operations, long mismatches, long[] histogram, long maxNanos,
+               long allocatedBytes, long gcCount, long gcPauseMillis, long maxGcPauseMillis) {
+            this.threads = threads;
+            this.elapsedNanos = elapsedNanos;
+            this.operations = operations;
+            this.mismatches = mismatches;
+            this.p50Nanos = percentile(histogram, operations, 0.50);
+            this.p90Nanos = percentile(histogram, operations, 0.90);
+            this.p99Nanos = percentile(histogram, operations, 0.99);
+            this.p999Nanos = percentile(histogram, operations, 0.999);
+            this.maxNanos = maxNanos;
+            this.allocatedBytes = allocatedBytes;
+            this.gcCount = gcCount;
+            this.gcPauseMillis = gcPauseMillis;
+            this.maxGcPauseMillis = maxGcPauseMillis;
+        }
+
+        public double throughputPerSecond() {
+            return operations * 1e9 / elapsedNanos;
+        }
+
+        public void print() {
+            double seconds = elapsedNanos / 1e9;
+            System.out.println("Soak Summary:");
+            System.out.printf("  Threads:       %d%n", threads);
+            System.out.printf("  Duration:      %.1f s%n", seconds);
+            System.out.printf("  Operations:    %d (%.0f ops/s)%n", operations, throughputPerSecond());
+            System.out.printf("  Mismatches:    %d%s%n", mismatches, mismatches > 0 ? " ✗" : " ✓");
+            System.out.printf("  Latency (ns):  p50 %d  p90 %d  p99 %d  p99.9 %d  max %d%n",
+                              p50Nanos, p90Nanos, p99Nanos, p999Nanos, maxNanos);
+            if (allocatedBytes >= 0) {
+                System.out.printf("  Allocation:    %.1f MB/s (%.0f bytes/op)%n",
+                                  allocatedBytes / 1e6 / seconds, (double) allocatedBytes / Math.max(1, operations));
+            } else {
+                System.out.println("  Allocation:    not available on this JVM");
+            }
+            System.out.printf("  GC pauses:     %d (total %d ms, max %d ms)%n", gcCount, gcPauseMillis, maxGcPauseMillis);
+        }
+    }
+
+    /* ------------------------------ main ---------------------------- */
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        String listeners = args.length > 3 ? args[3] : "none";
+
+        System.out.println("=".repeat(80));
+        System.out.println("FlightSearch Soak: " + threads + " threads, " + seconds + " s, seed " + seed
+                           + ", listeners " + listeners);
+        System.out.println("=".repeat(80));
+
+        SearchWorkload workload = new SearchWorkload(seed);
+        Duration warmup = Duration.ofSeconds(Math.max(1, seconds / 10));
+        LocalDateTime end = LocalDateTime.now().plus(warmup).plusSeconds(seconds);
+        if (end.toLocalDate().isAfter(workload.validThrough())) {
+            throw new IllegalArgumentException("run would end " + end + ", after the generated dates expire ("
+                                               + workload.validThrough() + "); use a shorter duration");
+        }
+        SearchWorkload.Request[] pool = workload.generate(POOL_SIZE);
+        Path journalDir = null;
+        SearchJournal journal = null;
+        SearchListener listener = null;
+        if (listeners.equals("journal") || listeners.equals("both")) {
+            journalDir = Files.createTempDirectory("soak-journal");
+            journal = new SearchJournal(journalDir);
+            listener = journal;
+        }
+        if (listeners.equals("analytics") || listeners.equals("both")) {
+            RouteAnalytics analytics = new RouteAnalytics();
+            listener = listener == null ? analytics : listener.andThen(analytics);
+        }
+
+        try {
+            run(pool, threads, warmup, listener);
+            run(pool, threads, Duration.ofSeconds(seconds), listener).print();
+        } finally {
+            if (journal != null) {
+                journal.close();
+                System.out.println("  Journaled:     " + journal.size() + " records");
+                deleteRecursively(journalDir);
+            }
+        }
+        System.out.println("=".repeat(80));
+    }
+
+    /* ------------------------------ run ----------------------------- */
+
+    /**
+     * Drive {@code runFlightSearch} from {@code threads} threads over {@code pool}
+     * for {@code duration}. Each thread starts at a different offset of the pool
+     * and uses its own FlightSearch; {@code listener} (may be null) is shared.
+     */
+    public static Report run(SearchWorkload.Request[] pool, int threads, Duration duration, SearchListener listener)
+            throws InterruptedException {
+        long[][] histograms = new long[threads][];
+        long[] ops = new long[threads];
+        long[] mismatches = new long[threads];
+        long[] max = new long[threads];
+        long[] allocated = new long[threads];
+        CountDownLatch start = new CountDownLatch(1);
+        long durationNanos = duration.toNanos();
+
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            Thread w = new Thread(() -> {
+                FlightSearch fs = new FlightSearch(listener);
+                long[] hist = new long[BUCKETS];
+                long n = 0, bad = 0, worst = 0;
+                int i = (int) ((long) pool.length * id / threads);
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                long alloc0 = threadAllocatedBytes();
+                long deadline = System.nanoTime() + durationNanos;
+                for (long now = System.nanoTime(); now < deadline; n++) {
+                    SearchWorkload.Request r = pool[i];
+                    if (++i == pool.length) i = 0;
+                    boolean ok = r.runOn(fs);
+                    long end = System.nanoTime();
+                    long latency = end - now;
+                    now = end;
+                    hist[bucket(latency)]++;
+                    if (latency > worst) worst = latency;
+                    if (ok != (r.expected == SearchWorkload.Outcome.VALID)) bad++;
+                }
+                long alloc1 = threadAllocatedBytes();
+                allocated[id] = alloc0 < 0 || alloc1 < 0 ? -1 : alloc1 - alloc0;
+                histograms[id] = hist;
+                ops[id] = n;
+                mismatches[id] = bad;
+                max[id] = worst;
+            }, "soak-" + t);
+            w.start();
+            workers.add(w);
+        }
+
+        GcMonitor gc = new GcMonitor();
+        long t0 = System.nanoTime();
+        start.countDown();
+        for (Thread w : workers) w.join();
+        long elapsed = System.nanoTime() - t0;
+        gc.stop();
+
+        long[] merged = new long[BUCKETS];
+        long totalOps = 0, totalBad = 0, worst = 0, totalAlloc = 0;
+        for (int t = 0; t < threads; t++) {
+            if (histograms[t] == null) continue; // interrupted before starting
+            for (int b = 0; b < BUCKETS; b++) merged[b] += histograms[t][b];
+            totalOps += ops[t];
+            totalBad += mismatches[t];
+            worst = Math.max(worst, max[t]);
+            totalAlloc = totalAlloc < 0 || allocated[t] < 0 ? -1 : totalAlloc + allocated[t];
+        }
+        return new Report(threads, elapsed, totalOps, totalBad, merged, worst, totalAlloc,
+                          gc.count.get(), gc.totalMillis.get(), gc.maxMillis.get());
+    }
+
+    /* ------------------- log-linear latency histogram ---------------- */
+    // Exact below 16 ns, then 16 sub-buckets per power of two (<= 6.25% error).
+    private static final int BUCKETS = 60 * 16;
+
+    static int bucket(long nanos) {
+        if (nanos < 16) return (int) Math.max(0, nanos);
+        int exp = 63 - Long.numberOfLeadingZeros(nanos);
+        return (exp - 3) * 16 + (int) (nanos >>> (exp - 4) & 15);
+    }
+
+    static long bucketUpperBound(int bucket) {
+        if (bucket < 16) return bucket;
+        int exp = bucket / 16 + 3;
+        return ((16L + bucket % 16 + 1) << (exp - 4)) - 1;
+    }
+
+    private static long percentile(long[] histogram, long total, double p) {
+        long rank = (long) Math.ceil(total * p);
+        long seen = 0;
+        for (int b = 0; b < histogram.length; b++) {
+            seen += histogram[b];
+            if (seen >= rank && seen > 0) return bucketUpperBound(b);
+        }
+        return 0;
+    }
+
+    /* -------------------------- JVM metrics ------------------------- */
+    private static long threadAllocatedBytes() {
+        java.lang.management.ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        if (mx instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) mx;
+            if (sun.isThreadAllocatedMemorySupported() && sun.isThreadAllocatedMemoryEnabled()) {
+                return sun.getCurrentThreadAllocatedBytes();
+            }
+        }
+        return -1;
+    }
+
+    /** Collects stop-the-world GC pauses reported via JMX notifications while running. */
+    static final class GcMonitor implements NotificationListener {
+        private static final long DRAIN_MILLIS = 200;
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong totalMillis = new AtomicLong();
+        final AtomicLong maxMillis = new AtomicLong();
+        private final List<NotificationEmitter> emitters = new ArrayList<>();
+
+        GcMonitor() {
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (gc instanceof NotificationEmitter) {
+                    ((NotificationEmitter) gc).addNotificationListener(this, null, null);
+                    emitters.add((NotificationEmitter) gc);
+                }
+            }
+        }
+
+        @Override
+        public void handleNotification(Notification n, Object handback) {
+            if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(n.getType())) return;
+            GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) n.getUserData());
+            if (!isPause(info.getGcAction(), info.getGcCause())) return;
+            long ms = info.getGcInfo().getDuration();
+            count.incrementAndGet();
+            totalMillis.addAndGet(ms);
+            maxMillis.accumulateAndGet(ms, Math::max);
+        }
+
+        /**
+         * Whole concurrent cycles ("end of GC cycle" from ZGC/Shenandoah, cause
+         * "No GC" from CMS) run alongside the application and are not pauses.
+         * Decided by action and cause, not bean name: G1's "G1 Concurrent GC"
+         * bean reports the stop-the-world Remark and Cleanup pauses.
+         */
+        static boolean isPause(String action, String cause) {
+            return !action.contains("cycle") && !"No GC".equals(cause);
+        }
+
+        /** Let notifications still in flight from the end of the run arrive, then unregister. */
+        void stop() throws InterruptedException {
+            Thread.sleep(DRAIN_MILLIS);
+            for (NotificationEmitter e : emitters) {
+                try {
+                    e.removeNotificationListener(this);
+                } catch (ListenerNotFoundException ex) {
+                    // already removed
+                }
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> s = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) s.sorted(Comparator.reverseOrder())::iterator) Files.delete(p);
+        }
+    }
+}